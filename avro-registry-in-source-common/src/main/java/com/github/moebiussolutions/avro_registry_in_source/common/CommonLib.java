@@ -1,7 +1,12 @@
 package com.github.moebiussolutions.avro_registry_in_source.common;
 
+import java.util.regex.Pattern;
+
 public class CommonLib {
 
+	// NOTE: Precompiled, since this is called on every schema lookup
+	private static final Pattern UNSAFE_FILENAME_CHARS = Pattern.compile("[^\\w\\-\\_]");
+
 	/**
 	 * This converts Avro type names and namespaces to filesystem-safe strings. Note
 	 * that all slashes and periods are sanitized out to avoid walking of the
@@ -11,6 +16,6 @@ public class CommonLib {
 	 */
 	public static String sanitizeAvroIdentifierToBaseFilename(String avroName) {
 		// NOTE: Sanitizing all slashes and periods so they cannot be used to walk directories on read/write
-		return avroName.replaceAll("[^\\w\\-\\_]", "_");
+		return UNSAFE_FILENAME_CHARS.matcher(avroName).replaceAll("_");
 	}
 }
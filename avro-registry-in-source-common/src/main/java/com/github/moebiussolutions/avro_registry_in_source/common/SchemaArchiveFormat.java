@@ -0,0 +1,267 @@
+package com.github.moebiussolutions.avro_registry_in_source.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads/writes the packed schema archive, which holds an entire schema registry
+ * in a single file. This is shared between the maven plugin (which writes it)
+ * and the java lib (which reads it), so that both agree on the layout:
+ *
+ * <pre>
+ * int    magic
+ * int    format version
+ * int    entry count
+ * entry* table of contents, sorted by (fingerprint, namespace, name):
+ *          long   fingerprint
+ *          string namespace (sanitized)
+ *          string name (sanitized)
+ *          int    offset of the schema data (relative to the data section)
+ *          int    compressed length
+ *          int    uncompressed length
+ * byte*  data section: each schema's JSON (UTF-8), deflated
+ * </pre>
+ *
+ * Strings are written as an int length followed by UTF-8 bytes.
+ */
+public class SchemaArchiveFormat {
+
+	/**
+	 * Identifies the file as a schema archive ("AVRA").
+	 */
+	public static final int MAGIC = 0x41565241;
+
+	/**
+	 * The version of the layout written by this class. Readers reject any other
+	 * version.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	/**
+	 * A single schema to be written to an archive.
+	 */
+	public static final class Entry {
+		final String namespace;
+		final String name;
+		final long fingerprint;
+		final byte[] schemaJson;
+
+		/**
+		 * @param namespace   The (sanitized) namespace of the schema.
+		 * @param name        The (sanitized) name of the schema.
+		 * @param fingerprint The fingerprint of the schema.
+		 * @param schemaJson  The JSON of the schema.
+		 */
+		public Entry(String namespace, String name, long fingerprint, String schemaJson) {
+			this.namespace = namespace;
+			this.name = name;
+			this.fingerprint = fingerprint;
+			this.schemaJson = schemaJson.getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * The table of contents of an archive, indexing the data section.
+	 */
+	public static final class TableOfContents {
+		private final long[] fingerprints;
+		private final String[] namespaces;
+		private final String[] names;
+		private final int[] offsets;
+		private final int[] compressedLengths;
+		private final int[] uncompressedLengths;
+		private int dataStart;
+
+		private TableOfContents(int size) {
+			this.fingerprints = new long[size];
+			this.namespaces = new String[size];
+			this.names = new String[size];
+			this.offsets = new int[size];
+			this.compressedLengths = new int[size];
+			this.uncompressedLengths = new int[size];
+		}
+
+		/**
+		 * @return The number of schemas in the archive.
+		 */
+		public int size() {
+			return this.fingerprints.length;
+		}
+
+		/**
+		 * Locates a schema in the archive.
+		 *
+		 * @param namespace   The (sanitized) namespace of the schema.
+		 * @param name        The (sanitized) name of the schema.
+		 * @param fingerprint The fingerprint of the schema.
+		 *
+		 * @return The index of the schema, or <code>-1</code> if not found.
+		 */
+		public int find(String namespace, String name, long fingerprint) {
+			// Find the first entry with the fingerprint
+			int low = 0;
+			int high = this.fingerprints.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (this.fingerprints[mid] < fingerprint) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			// ... then scan the (rare) entries sharing it
+			for (int i = low; i < this.fingerprints.length && this.fingerprints[i] == fingerprint; i++) {
+				if (this.namespaces[i].equals(namespace) && this.names[i].equals(name)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+	/**
+	 * Writes an archive containing the provided schemas.
+	 *
+	 * @param entries The schemas to write (in any order).
+	 * @param out     The stream to write to.
+	 *
+	 * @throws IOException If failed to write to the stream.
+	 */
+	public static void write(List<Entry> entries, OutputStream out) throws IOException {
+		List<Entry> sorted = new ArrayList<>(entries);
+		sorted.sort(Comparator.<Entry>comparingLong((e) -> e.fingerprint)
+				.thenComparing((e) -> e.namespace)
+				.thenComparing((e) -> e.name));
+
+		// Compress the data section first, so that the offsets are known
+		ByteArrayOutputStream data = new ByteArrayOutputStream();
+		int[] offsets = new int[sorted.size()];
+		int[] compressedLengths = new int[sorted.size()];
+		byte[] buffer = new byte[8192];
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			for (int i = 0; i < sorted.size(); i++) {
+				offsets[i] = data.size();
+				deflater.reset();
+				deflater.setInput(sorted.get(i).schemaJson);
+				deflater.finish();
+				while (!deflater.finished()) {
+					data.write(buffer, 0, deflater.deflate(buffer));
+				}
+				compressedLengths[i] = data.size() - offsets[i];
+			}
+		} finally {
+			deflater.end();
+		}
+
+		DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeInt(MAGIC);
+		dataOut.writeInt(FORMAT_VERSION);
+		dataOut.writeInt(sorted.size());
+		for (int i = 0; i < sorted.size(); i++) {
+			Entry entry = sorted.get(i);
+			dataOut.writeLong(entry.fingerprint);
+			writeString(dataOut, entry.namespace);
+			writeString(dataOut, entry.name);
+			dataOut.writeInt(offsets[i]);
+			dataOut.writeInt(compressedLengths[i]);
+			dataOut.writeInt(entry.schemaJson.length);
+		}
+		data.writeTo(dataOut);
+		dataOut.flush();
+	}
+
+	/**
+	 * Reads the table of contents from the start of an archive. The provided
+	 * buffer is not modified.
+	 *
+	 * @param archive The full contents of the archive.
+	 * @return The table of contents.
+	 *
+	 * @throws IOException If the archive is malformed.
+	 */
+	public static TableOfContents readTableOfContents(ByteBuffer archive) throws IOException {
+		ByteBuffer in = archive.duplicate();
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new IOException("Not a schema archive (bad magic number)");
+			}
+			int version = in.getInt();
+			if (version != FORMAT_VERSION) {
+				throw new IOException("Unsupported schema archive version [" + version + "]");
+			}
+			TableOfContents toc = new TableOfContents(in.getInt());
+			for (int i = 0; i < toc.size(); i++) {
+				toc.fingerprints[i] = in.getLong();
+				toc.namespaces[i] = readString(in);
+				toc.names[i] = readString(in);
+				toc.offsets[i] = in.getInt();
+				toc.compressedLengths[i] = in.getInt();
+				toc.uncompressedLengths[i] = in.getInt();
+			}
+			toc.dataStart = in.position();
+			return toc;
+		} catch (RuntimeException e) {
+			throw new IOException("Malformed schema archive", e);
+		}
+	}
+
+	/**
+	 * Reads (and decompresses) the JSON of a single schema from an archive. The
+	 * provided buffer is not modified, so this is safe to call concurrently.
+	 *
+	 * @param archive The full contents of the archive.
+	 * @param toc     The archive's table of contents.
+	 * @param index   The index of the schema (from
+	 *                {@link TableOfContents#find(String, String, long)}).
+	 * @return The JSON of the schema.
+	 *
+	 * @throws IOException If the archive is malformed.
+	 */
+	public static String readSchemaJson(ByteBuffer archive, TableOfContents toc, int index) throws IOException {
+		byte[] compressed = new byte[toc.compressedLengths[index]];
+		byte[] json = new byte[toc.uncompressedLengths[index]];
+		Inflater inflater = new Inflater();
+		try {
+			ByteBuffer in = archive.duplicate();
+			// NOTE: Cast keeps the compiled call compatible with Java 8 (no covariant override)
+			((Buffer) in).position(toc.dataStart + toc.offsets[index]);
+			in.get(compressed);
+			inflater.setInput(compressed);
+			int length = inflater.inflate(json);
+			if (length != json.length || !inflater.finished()) {
+				throw new IOException("Truncated schema data for [" + toc.namespaces[index] + ":"
+						+ toc.names[index] + ":" + toc.fingerprints[index] + "]");
+			}
+		} catch (DataFormatException | RuntimeException e) {
+			throw new IOException("Malformed schema data for [" + toc.namespaces[index] + ":"
+					+ toc.names[index] + ":" + toc.fingerprints[index] + "]", e);
+		} finally {
+			inflater.end();
+		}
+		return new String(json, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in) {
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -1,8 +1,14 @@
 package com.github.moebiussolutions.avro_registry_in_source.plugin;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.avro.Protocol;
 import org.apache.avro.Schema;
@@ -18,6 +24,7 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import com.github.moebiussolutions.avro_registry_in_source.common.CommonLib;
+import com.github.moebiussolutions.avro_registry_in_source.common.SchemaArchiveFormat;
 
 @Mojo(name = "idl-export-validate-compile", defaultPhase = LifecyclePhase.GENERATE_SOURCES)
 public class HistoricalIdlToJavaCompiler extends AbstractMojo {
@@ -54,6 +61,18 @@ public class HistoricalIdlToJavaCompiler extends AbstractMojo {
 	@Parameter (defaultValue = "target/generated-avro-sources")
 	File javaTargetDir;
 
+	/**
+	 * An optional file where all Avro Schema files (.avsc) from
+	 * {@link #schemaSourceDir} should be packed into a single binary archive.
+	 * This file should be included in the build (as a resource), and can be
+	 * loaded in place of the individual schema files. When not set, no archive is
+	 * written.
+	 */
+	@Parameter
+	File schemaArchiveFile;
+
+	private static final Pattern SCHEMA_FILENAME_PATTERN = Pattern.compile("^(.+)_(-?\\d+)\\.avsc$");
+
 	public void execute() throws MojoExecutionException {
 		if (!this.idlFile.isFile()) {
 			throw new RuntimeException("IDL file ["+this.idlFile+"] is not accessible");
@@ -79,6 +98,9 @@ public class HistoricalIdlToJavaCompiler extends AbstractMojo {
 			System.err.println("");
 			throw e;
 		}
+		if (this.schemaArchiveFile != null) {
+			packSchemaArchive(this.schemaSourceDir, this.schemaArchiveFile);
+		}
 		generateJava(this.idlFile, this.javaTargetDir);
 	}
 
@@ -172,6 +194,54 @@ public class HistoricalIdlToJavaCompiler extends AbstractMojo {
 		}
 	}
 
+	/**
+	 * Packs all of the Avro schemas (.avsc) within a schema directory into a
+	 * single archive (see {@link SchemaArchiveFormat}). Each schema is keyed by
+	 * the namespace directory and fingerprinted filename it is stored under.
+	 * 
+	 * @param schemaDir
+	 *            The directory where the schemas exist.
+	 * @param archiveFile
+	 *            The archive file to write. The parent directory will be created
+	 *            as necessary.
+	 * 
+	 * @throws InvalidSchemaFiles
+	 *             When any of the schema files are misnamed or invalid.
+	 */
+	// Package protected
+	static void packSchemaArchive(File schemaDir, File archiveFile) throws InvalidSchemaFiles {
+		List<SchemaArchiveFormat.Entry> entries = new ArrayList<>();
+		for (File schemaFile : FileUtils.listFiles(schemaDir, new String[] { "avsc" }, true)) {
+			Matcher matcher = SCHEMA_FILENAME_PATTERN.matcher(schemaFile.getName());
+			if (!matcher.matches()) {
+				throw new InvalidSchemaFiles(
+						"Schema file ["+schemaFile+"] is not named as <type>_<fingerprint>.avsc");
+			}
+			Schema schema;
+			try {
+				schema = new Schema.Parser().parse(schemaFile);
+			} catch (RuntimeException | IOException e) {
+				throw new InvalidSchemaFiles(
+						"Failed to parse schema file ["+schemaFile+"]", e);
+			}
+			entries.add(new SchemaArchiveFormat.Entry(
+					schemaFile.getParentFile().getName(),
+					matcher.group(1),
+					Long.parseLong(matcher.group(2)),
+					schema.toString()));
+		}
+		try {
+			FileUtils.forceMkdirParent(archiveFile);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to create directory ["+archiveFile.getParentFile()+"]");
+		}
+		try (OutputStream out = new BufferedOutputStream(FileUtils.openOutputStream(archiveFile))) {
+			SchemaArchiveFormat.write(entries, out);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to write schema archive to ["+archiveFile+"]", e);
+		}
+	}
+
 	/**
 	 * Generates Java source files from an Avro IDL (.avdl).
 	 */
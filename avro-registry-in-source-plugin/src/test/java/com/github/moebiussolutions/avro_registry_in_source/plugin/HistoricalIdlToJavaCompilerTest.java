@@ -5,12 +5,16 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
 import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.github.moebiussolutions.avro_registry_in_source.common.SchemaArchiveFormat;
 import com.github.moebiussolutions.avro_registry_in_source.plugin.HistoricalIdlToJavaCompiler;
 
 public class HistoricalIdlToJavaCompilerTest {
@@ -119,4 +123,30 @@ public class HistoricalIdlToJavaCompilerTest {
 		assertTrue(new File(mojo.javaTargetDir, "com/example/package/MockProtocol.java").isFile());
 		assertTrue(new File(mojo.javaTargetDir, "com/example/package/Room.java").isFile());
 	}
+
+	/**
+	 * Verifies that {@link HistoricalIdlToJavaCompiler#packSchemaArchive(File, File)}
+	 * writes every schema file to the archive, indexed by its fingerprinted filename.
+	 */
+	@Test
+	public void test_PackSchemaArchive() throws Exception {
+		// Setup
+		File schemaDir = new File("src/test/resources/"+HistoricalIdlToJavaCompilerTest.class.getSimpleName());
+		File archiveFile = new File(TEST_FILES, "archive/avro-registry.bin");
+
+		// Execute
+		HistoricalIdlToJavaCompiler.packSchemaArchive(schemaDir, archiveFile);
+
+		// Verify
+		ByteBuffer archive = ByteBuffer.wrap(FileUtils.readFileToByteArray(archiveFile));
+		SchemaArchiveFormat.TableOfContents toc = SchemaArchiveFormat.readTableOfContents(archive);
+		assertEquals(4, toc.size());
+		assertEquals(-1, toc.find("com_example_package", "Bed", 1L));
+		assertEquals(-1, toc.find("com_example_package", "Room", 1378068713606829616L));
+		int index = toc.find("com_example_package", "Bed", 1378068713606829616L);
+		assertTrue(index >= 0);
+		Schema schema = new Schema.Parser().parse(SchemaArchiveFormat.readSchemaJson(archive, toc, index));
+		assertEquals("com.example.package.Bed", schema.getFullName());
+		assertEquals(1378068713606829616L, SchemaNormalization.parsingFingerprint64(schema));
+	}
 }
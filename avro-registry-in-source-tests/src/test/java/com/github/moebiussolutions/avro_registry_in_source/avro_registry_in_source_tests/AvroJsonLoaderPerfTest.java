@@ -0,0 +1,288 @@
+package com.github.moebiussolutions.avro_registry_in_source.avro_registry_in_source_tests;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.JsonEncoder;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.example.Bed;
+import com.example.BedSize;
+import com.example.House;
+import com.example.Room;
+import com.github.moebiussolutions.avro_registry_in_source.AvroJsonLoader;
+
+/**
+ * Guards against performance regressions in {@link AvroJsonLoader}, such as
+ * (re)introducing per-call schema parsing or regex compilation. These only run
+ * with the <code>perf-tests</code> profile:
+ *
+ * <pre>
+ * mvn test -Pperf-tests
+ * </pre>
+ *
+ * Most of the cost of {@link AvroJsonLoader#toJson(org.apache.avro.specific.SpecificRecordBase, boolean)}
+ * and {@link AvroJsonLoader#fromJson(String, org.apache.avro.specific.SpecificRecordBase)}
+ * is in Avro itself, so both allocation and throughput are measured relative to
+ * the equivalent raw Avro calls. This keeps the budgets tight enough to notice
+ * a schema parse (~12KB) or a regex compile (~2KB). The throughput floors are
+ * coarser, and leave headroom for noise between runs and machines.
+ */
+public class AvroJsonLoaderPerfTest {
+
+	private static final int WARMUP_ITERATIONS = 2000;
+	private static final int MEASURED_ITERATIONS = 2000;
+	private static final int TIMING_ROUNDS = 5;
+
+	/** Allocation allowed beyond raw Avro encoding (for the header) */
+	private static final long TO_JSON_MAX_OVERHEAD_BYTES_PER_OP = 2 * 1024;
+	/** Allocation allowed beyond raw Avro decoding (for the header and schema lookup) */
+	private static final long FROM_JSON_MAX_OVERHEAD_BYTES_PER_OP = 12 * 1024;
+	/** Allocation allowed for an (already loaded) schema lookup */
+	private static final long LOAD_SCHEMA_MAX_BYTES_PER_OP = 1536;
+
+	private static final double TO_JSON_MIN_RELATIVE_THROUGHPUT = 0.5;
+	private static final double FROM_JSON_MIN_RELATIVE_THROUGHPUT = 0.5;
+	private static final double LOAD_SCHEMA_MIN_SPEEDUP_OVER_PARSE = 10.0;
+
+	private static final long OLD_HOUSE_FINGERPRINT = -582778734993576161L;
+
+	private static final JsonReaderFactory JSON_READER_FACTORY = Json.createReaderFactory(null);
+
+	private final AvroJsonLoader loader = new AvroJsonLoader("/avro-registry");
+	private House house;
+	private String currentJson;
+	private String oldJson;
+
+	@Before
+	public void setUp() throws Exception {
+		this.house = House.newBuilder().setRooms(Arrays.asList(
+				Room.newBuilder()
+					.setBeds(Arrays.asList(
+						Bed.newBuilder().setSize(BedSize.KING).build()))
+				.build(),
+				Room.newBuilder()
+					.setBeds(Arrays.asList(
+						Bed.newBuilder().setSize(BedSize.QUEEN).build(),
+						Bed.newBuilder().setSize(BedSize.TWIN).build()))
+				.build()))
+		.build();
+		this.currentJson = this.loader.toJson(this.house, false);
+		try (InputStream in = AvroJsonLoaderPerfTest.class.getResourceAsStream("/LoaderTest_house-before-firmness.json")) {
+			this.oldJson = IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testToJson_AllocationBudget() {
+		long baselineBytes = measureAllocatedBytesPerOp(this::encodeWithAvro);
+		long loaderBytes = measureAllocatedBytesPerOp(() -> this.loader.toJson(this.house, false));
+		assertWithinBudget("toJson", loaderBytes - baselineBytes, TO_JSON_MAX_OVERHEAD_BYTES_PER_OP);
+	}
+
+	@Test
+	public void testFromJson_CurrentSchema_AllocationBudget() {
+		doTestFromJson_AllocationBudget("fromJson (current schema)", this.currentJson);
+	}
+
+	@Test
+	public void testFromJson_HistoricalSchema_AllocationBudget() {
+		doTestFromJson_AllocationBudget("fromJson (historical schema)", this.oldJson);
+	}
+
+	public void doTestFromJson_AllocationBudget(String operation, String json) {
+		Schema writerSchema = loadWriterSchema(json);
+		String body = extractBody(json);
+		long baselineBytes = measureAllocatedBytesPerOp(() -> decodeWithAvro(writerSchema, body));
+		long loaderBytes = measureAllocatedBytesPerOp(() -> this.loader.fromJson(json, this.house));
+		assertWithinBudget(operation, loaderBytes - baselineBytes, FROM_JSON_MAX_OVERHEAD_BYTES_PER_OP);
+	}
+
+	@Test
+	public void testLoadSchema_AllocationBudget() {
+		long loaderBytes = measureAllocatedBytesPerOp(
+				() -> this.loader.loadSchema("com.example", "House", OLD_HOUSE_FINGERPRINT));
+		assertWithinBudget("loadSchema", loaderBytes, LOAD_SCHEMA_MAX_BYTES_PER_OP);
+	}
+
+	@Test
+	public void testToJson_RelativeThroughput() {
+		long baselineNanos = measureNanosPerOp(this::encodeWithAvro);
+		long loaderNanos = measureNanosPerOp(() -> this.loader.toJson(this.house, false));
+		assertRelativeThroughput("toJson", baselineNanos, loaderNanos, TO_JSON_MIN_RELATIVE_THROUGHPUT);
+	}
+
+	/**
+	 * Compares against raw Avro decoding that also unwraps the JSON envelope (as
+	 * the loader must), so that only the schema lookup/resolution differs.
+	 */
+	@Test
+	public void testFromJson_HistoricalSchema_RelativeThroughput() {
+		Schema writerSchema = loadWriterSchema(this.oldJson);
+		long baselineNanos = measureNanosPerOp(() -> decodeWithAvro(writerSchema, unwrapBody(this.oldJson)));
+		long loaderNanos = measureNanosPerOp(() -> this.loader.fromJson(this.oldJson, this.house));
+		assertRelativeThroughput("fromJson (historical schema)", baselineNanos, loaderNanos,
+				FROM_JSON_MIN_RELATIVE_THROUGHPUT);
+	}
+
+	/**
+	 * Verifies that (repeated) {@link AvroJsonLoader#loadSchema(String, String, long)}
+	 * is much faster than parsing the schema, which it should only ever do once.
+	 */
+	@Test
+	public void testLoadSchema_RelativeThroughput() throws Exception {
+		String schemaJson;
+		try (InputStream in = AvroJsonLoaderPerfTest.class.getResourceAsStream(
+				"/avro-registry/com_example/House_" + OLD_HOUSE_FINGERPRINT + ".avsc")) {
+			schemaJson = IOUtils.toString(in, StandardCharsets.UTF_8);
+		}
+		long parseNanos = measureNanosPerOp(() -> new Schema.Parser().parse(schemaJson));
+		long loaderNanos = measureNanosPerOp(
+				() -> this.loader.loadSchema("com.example", "House", OLD_HOUSE_FINGERPRINT));
+		assertRelativeThroughput("loadSchema (vs parse)", parseNanos, loaderNanos,
+				LOAD_SCHEMA_MIN_SPEEDUP_OVER_PARSE);
+	}
+
+	/**
+	 * Verifies that the raw Avro baseline decodes the same message as the loader
+	 * (so that the comparisons above are like-for-like).
+	 */
+	@Test
+	public void testBaseline_MatchesLoader() {
+		Schema writerSchema = loadWriterSchema(this.oldJson);
+		House expected = this.loader.fromJson(this.oldJson, this.house);
+		assertEquals(expected, decodeWithAvro(writerSchema, extractBody(this.oldJson)));
+	}
+
+	private String encodeWithAvro() {
+		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			JsonEncoder encoder = EncoderFactory.get().jsonEncoder(this.house.getSchema(), out, false);
+			new SpecificDatumWriter<House>(House.class).write(this.house, encoder);
+			encoder.flush();
+			return out.toString();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static House decodeWithAvro(Schema writerSchema, String body) {
+		try {
+			return new SpecificDatumReader<House>(writerSchema, House.getClassSchema())
+					.read(null, DecoderFactory.get().jsonDecoder(writerSchema, body));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private Schema loadWriterSchema(String json) {
+		String fingerprint = json.replaceAll(
+				"(?s).*\"" + AvroJsonLoader.AVRO_HEADER_FINGERPRINT + "\"\\s*:\\s*\"(-?\\d+)\".*", "$1");
+		return this.loader.loadSchema("com.example", "House", Long.parseLong(fingerprint));
+	}
+
+	/**
+	 * Unwraps the message body the same way the loader does (parsing the
+	 * envelope and re-serializing the body).
+	 */
+	private static String unwrapBody(String json) {
+		try (JsonReader jsonReader = JSON_READER_FACTORY.createReader(new StringReader(json))) {
+			JsonObject root = jsonReader.readObject();
+			root.getString(AvroJsonLoader.AVRO_HEADER_NAMESPACE);
+			root.getString(AvroJsonLoader.AVRO_HEADER_TYPE);
+			Long.parseLong(root.getString(AvroJsonLoader.AVRO_HEADER_FINGERPRINT));
+			return root.getJsonObject(AvroJsonLoader.AVRO_HEADER_DATA).toString();
+		}
+	}
+
+	private static String extractBody(String json) {
+		return json.substring(
+				json.indexOf('{', json.indexOf(AvroJsonLoader.AVRO_HEADER_DATA)),
+				json.lastIndexOf('}'));
+	}
+
+	private static long measureAllocatedBytesPerOp(Operation op) {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue("Thread allocation counters are not supported by this JVM",
+				bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue("Thread allocation counters are not supported by this JVM",
+				threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+
+		long threadId = Thread.currentThread().getId();
+		Object sink = null;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink = op.run();
+		}
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+			sink = op.run();
+		}
+		long after = threadBean.getThreadAllocatedBytes(threadId);
+		assertTrue(sink != null);
+		return (after - before) / MEASURED_ITERATIONS;
+	}
+
+	/**
+	 * @return The fastest (least noisy) per-operation time over several rounds.
+	 */
+	private static long measureNanosPerOp(Operation op) {
+		Object sink = null;
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			sink = op.run();
+		}
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < TIMING_ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+				sink = op.run();
+			}
+			best = Math.min(best, (System.nanoTime() - start) / MEASURED_ITERATIONS);
+		}
+		assertTrue(sink != null);
+		return Math.max(best, 1);
+	}
+
+	private static void assertWithinBudget(String operation, long bytesPerOp, long maxBytesPerOp) {
+		assertTrue(String.format("%s allocated [%s] bytes/op, exceeding the budget of [%s]",
+				operation, bytesPerOp, maxBytesPerOp), bytesPerOp <= maxBytesPerOp);
+	}
+
+	private static void assertRelativeThroughput(String operation, long baselineNanos, long nanos, double minRatio) {
+		double ratio = (double) baselineNanos / nanos;
+		assertTrue(String.format("%s ran at [%.2f]x the baseline throughput (%s ns/op vs %s ns/op), below the floor of [%.2f]x",
+				operation, ratio, nanos, baselineNanos, minRatio), ratio >= minRatio);
+	}
+
+	@FunctionalInterface
+	private interface Operation {
+		/**
+		 * @return The result of the operation (kept, so it cannot be optimized away).
+		 */
+		Object run();
+	}
+}
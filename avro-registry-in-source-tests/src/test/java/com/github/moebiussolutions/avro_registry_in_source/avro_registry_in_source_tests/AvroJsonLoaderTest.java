@@ -2,11 +2,20 @@ package com.github.moebiussolutions.avro_registry_in_source.avro_registry_in_sou
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
+import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
+import org.apache.avro.Schema;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
@@ -16,6 +25,7 @@ import com.example.BedSize;
 import com.example.House;
 import com.example.Room;
 import com.github.moebiussolutions.avro_registry_in_source.AvroJsonLoader;
+import com.github.moebiussolutions.avro_registry_in_source.SchemaArchive;
 
 public class AvroJsonLoaderTest {
 
@@ -80,13 +90,49 @@ public class AvroJsonLoaderTest {
 
 	@Test
 	public void testFromJson_FromOldSchema() throws Exception {
+		doTestFromJson_FromOldSchema(new AvroJsonLoader("/avro-registry"));
+	}
+
+	/**
+	 * Verifies that the packed schema archive (written by the plugin) can be used
+	 * in place of the individual schema files.
+	 */
+	@Test
+	public void testFromJson_FromOldSchema_WithSchemaArchive() throws Exception {
+		SchemaArchive archive = SchemaArchive.open("/avro-registry.bin");
+		assertEquals(8, archive.size());
+		doTestFromJson_FromOldSchema(new AvroJsonLoader(archive));
+	}
+
+	/**
+	 * Verifies that the packed schema archive can be loaded from within a JAR
+	 * (which cannot be memory-mapped, so is read into memory instead).
+	 */
+	@Test
+	public void testFromJson_FromOldSchema_WithSchemaArchiveInJar() throws Exception {
+		// Package the archive into a JAR
+		File jarFile = new File("target/junit-temp/" + AvroJsonLoaderTest.class.getName() + "/avro-registry.jar");
+		FileUtils.forceMkdirParent(jarFile);
+		try (OutputStream out = FileUtils.openOutputStream(jarFile);
+				JarOutputStream jarOut = new JarOutputStream(out);
+				InputStream in = AvroJsonLoaderTest.class.getResourceAsStream("/avro-registry.bin")) {
+			jarOut.putNextEntry(new JarEntry("avro-registry.bin"));
+			IOUtils.copy(in, jarOut);
+			jarOut.closeEntry();
+		}
+
+		SchemaArchive archive = SchemaArchive.open(new URL("jar:" + jarFile.toURI().toURL() + "!/avro-registry.bin"));
+		assertEquals(8, archive.size());
+		doTestFromJson_FromOldSchema(new AvroJsonLoader(archive));
+	}
+
+	public void doTestFromJson_FromOldSchema(AvroJsonLoader loader) throws Exception {
 
 		String json;
 		try (InputStream in = AvroJsonLoaderTest.class.getResourceAsStream("/LoaderTest_house-before-firmness.json")) {
 			json = IOUtils.toString(in, StandardCharsets.UTF_8);
 		}
 
-		AvroJsonLoader loader = new AvroJsonLoader("/avro-registry");
 		House house = loader.fromJson(json, new House());
 
 		// Verify resulting structure
@@ -108,4 +154,38 @@ public class AvroJsonLoaderTest {
 		// ... Including values for schema-evolved fields
 		assertEquals(BedFirmness.HARD, bed.getFirmness());
 	}
+
+	/**
+	 * Verifies that named types repeated across historical schemas are loaded as
+	 * shared instances, while distinct versions of a type remain distinct.
+	 */
+	@Test
+	public void testLoadSchema_SharesNamedTypesAcrossVersions() throws Exception {
+
+		AvroJsonLoader loader = new AvroJsonLoader("/avro-registry");
+
+		Schema oldHouse = loader.loadSchema("com.example", "House", -582778734993576161L);
+		Schema newHouse = loader.loadSchema("com.example", "House", 3910014072043378435L);
+		Schema newBed = loader.loadSchema("com.example", "Bed", -646396851038546290L);
+
+		// Repeated loads return the cached schema
+		assertSame(newHouse, loader.loadSchema("com.example", "House", 3910014072043378435L));
+
+		// Identical nested types are shared between versions
+		Schema oldBedInHouse = getBedSchema(oldHouse);
+		Schema newBedInHouse = getBedSchema(newHouse);
+		assertSame(oldBedInHouse.getField("size").schema(), newBedInHouse.getField("size").schema());
+		assertSame(newBed, newBedInHouse);
+		assertSame(newBed.getField("firmness").schema(), newBedInHouse.getField("firmness").schema());
+
+		// ... but evolved types are not
+		assertNotSame(oldBedInHouse, newBedInHouse);
+		assertEquals(1, oldBedInHouse.getFields().size());
+		assertEquals(2, newBedInHouse.getFields().size());
+	}
+
+	private static Schema getBedSchema(Schema house) {
+		Schema room = house.getField("rooms").schema().getTypes().get(1).getElementType();
+		return room.getField("beds").schema().getTypes().get(1).getElementType();
+	}
 }
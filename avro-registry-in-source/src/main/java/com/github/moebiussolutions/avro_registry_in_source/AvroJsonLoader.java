@@ -6,12 +6,16 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.json.Json;
+import javax.json.JsonBuilderFactory;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
 
 import org.apache.avro.Schema;
 import org.apache.avro.SchemaNormalization;
@@ -35,8 +39,18 @@ public class AvroJsonLoader {
 	public static final String AVRO_HEADER_FINGERPRINT = "avroVer";
 	public static final String AVRO_HEADER_DATA = "avroData";
 
-	private final String schemaRegistryResourcePath;
+	private static final String MSG_HOLDER = "##MSG##";
+	private static final Pattern MSG_HOLDER_PATTERN = Pattern.compile(Pattern.quote("\""+MSG_HOLDER+"\""));
+
+	// NOTE: Json.createReader()/createObjectBuilder() look up the JSON provider on every call
+	private static final JsonReaderFactory JSON_READER_FACTORY = Json.createReaderFactory(null);
+	private static final JsonBuilderFactory JSON_BUILDER_FACTORY = Json.createBuilderFactory(null);
+
+	private final SchemaProvider embeddedSchemaProvider;
 	private final SchemaProvider externalSchemaProvider;
+	private final SchemaInterner schemaInterner = new SchemaInterner();
+	private final Map<String, Schema> loadedSchemas = new ConcurrentHashMap<>();
+	private final Map<Schema, JsonHeader> jsonHeaders = new ConcurrentHashMap<>();
 
 	/**
 	 * @param schemaRegistryResourcePath Resoure file path of the directory
@@ -52,7 +66,25 @@ public class AvroJsonLoader {
 	 * @param externalProvider           An optional secondary provider of schemas.
 	 */
 	public AvroJsonLoader(String schemaRegistryResourcePath, SchemaProvider externalProvider) {
-		this.schemaRegistryResourcePath = schemaRegistryResourcePath;
+		this.embeddedSchemaProvider = (ns, ty, sig) -> loadSchemaResource(schemaRegistryResourcePath, ns, ty, sig);
+		this.externalSchemaProvider = (externalProvider != null) ? externalProvider : (ns, ty, sig) -> null;
+	}
+
+	/**
+	 * @param schemaArchive The packed archive containing the embedded schemas
+	 *                      (see {@link SchemaArchive#open(String)}).
+	 */
+	public AvroJsonLoader(SchemaArchive schemaArchive) {
+		this(schemaArchive, null);
+	}
+
+	/**
+	 * @param schemaArchive    The packed archive containing the embedded schemas
+	 *                         (see {@link SchemaArchive#open(String)}).
+	 * @param externalProvider An optional secondary provider of schemas.
+	 */
+	public AvroJsonLoader(SchemaArchive schemaArchive, SchemaProvider externalProvider) {
+		this.embeddedSchemaProvider = schemaArchive;
 		this.externalSchemaProvider = (externalProvider != null) ? externalProvider : (ns, ty, sig) -> null;
 	}
 
@@ -78,7 +110,7 @@ public class AvroJsonLoader {
 		long writerSchemaVersion;
 		String mainJsonData;
 		try (StringReader reader = new StringReader(json)) {
-			try (JsonReader jsonReader = Json.createReader(reader)) {
+			try (JsonReader jsonReader = JSON_READER_FACTORY.createReader(reader)) {
 				JsonObject root = jsonReader.readObject();
 				writerSchemaType = root.getString(AVRO_HEADER_TYPE);
 				writerSchemaNamespace= root.getString(AVRO_HEADER_NAMESPACE);
@@ -141,7 +173,7 @@ public class AvroJsonLoader {
 	public <K extends SpecificRecordBase> String toJson(K avroPojo, boolean pretty) {
 		String json;
 		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-			new AvroJsonLoader(this.schemaRegistryResourcePath).toJson(avroPojo, out, pretty);
+			toJson(avroPojo, out, pretty);
 			json = out.toString();
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to write to in-memory buffer (shouldn't happen)", e);
@@ -160,26 +192,9 @@ public class AvroJsonLoader {
 	 * @param          <K> The POJO type to return.
 	 */
 	public <K extends SpecificRecordBase> void toJson(K avroPojo, OutputStream out, boolean pretty) {
-		
-		final String MSG_HOLDER = "##MSG##"; 
-		final Pattern MSG_HOLDER_PATTERN = Pattern.compile(Pattern.quote("\""+MSG_HOLDER+"\""));
-		
-		// TODO [rkenney]: Cache fingerprints
-		long fp = SchemaNormalization.parsingFingerprint64(avroPojo.getSchema());
-		String avroWrapper = Json.createObjectBuilder()
-			.add(AVRO_HEADER_NAMESPACE, avroPojo.getSchema().getNamespace())
-			.add(AVRO_HEADER_TYPE, avroPojo.getSchema().getName())
-			.add(AVRO_HEADER_FINGERPRINT, ""+fp)
-			.add(AVRO_HEADER_DATA, MSG_HOLDER).build().toString();
-		
-		Matcher matcher = MSG_HOLDER_PATTERN.matcher(avroWrapper);
-		if (!matcher.find()) {
-			throw new RuntimeException("Missing pattern. This should not happen.");
-		}
-		String headerPrefix = avroWrapper.substring(0, matcher.start());
-		String headerSuffix = avroWrapper.substring(matcher.end(), avroWrapper.length());
+		JsonHeader header = this.jsonHeaders.computeIfAbsent(avroPojo.getSchema(), AvroJsonLoader::buildJsonHeader);
 		try {
-			IOUtils.write(headerPrefix, out, StandardCharsets.UTF_8);
+			out.write(header.prefix);
 			if (pretty) {
 				IOUtils.write(System.lineSeparator(), out, StandardCharsets.UTF_8);
 			}
@@ -193,16 +208,54 @@ public class AvroJsonLoader {
 			if (pretty) {
 				IOUtils.write(System.lineSeparator(), out, StandardCharsets.UTF_8);
 			}
-			IOUtils.write(headerSuffix, out, StandardCharsets.UTF_8);
+			out.write(header.suffix);
 			out.flush();
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to write avro pojo to json", e);
 		}
 	}
 
+	/**
+	 * The JSON that {@link #toJson(SpecificRecordBase, OutputStream, boolean)}
+	 * writes before and after the message body, which depends only on the schema.
+	 */
+	private static final class JsonHeader {
+		final byte[] prefix;
+		final byte[] suffix;
+
+		JsonHeader(String prefix, String suffix) {
+			this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+			this.suffix = suffix.getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	private static JsonHeader buildJsonHeader(Schema schema) {
+		long fp = SchemaNormalization.parsingFingerprint64(schema);
+		String avroWrapper = JSON_BUILDER_FACTORY.createObjectBuilder()
+			.add(AVRO_HEADER_NAMESPACE, schema.getNamespace())
+			.add(AVRO_HEADER_TYPE, schema.getName())
+			.add(AVRO_HEADER_FINGERPRINT, ""+fp)
+			.add(AVRO_HEADER_DATA, MSG_HOLDER).build().toString();
+		
+		Matcher matcher = MSG_HOLDER_PATTERN.matcher(avroWrapper);
+		if (!matcher.find()) {
+			throw new RuntimeException("Missing pattern. This should not happen.");
+		}
+		return new JsonHeader(
+				avroWrapper.substring(0, matcher.start()),
+				avroWrapper.substring(matcher.end(), avroWrapper.length()));
+	}
+
 	/**
 	 * Given an Avro type and schema signature, return the {@link Schema}.
 	 * 
+	 * <p>
+	 * Schemas loaded from the embedded registry (resource files or archive) are
+	 * cached, and their named types (records, enums, fixed) are shared with every
+	 * other schema loaded by this instance, so memory scales with the number of
+	 * distinct types rather than the number of historical versions.
+	 * </p>
+	 * 
 	 * @param typeNamespace    Namespace of the Avro schema.
 	 * @param type             Name of the Avro type.
 	 * @param versionSignature The hash value of the Avro schema. The stream to
@@ -214,8 +267,28 @@ public class AvroJsonLoader {
 	public Schema loadSchema(String typeNamespace, String type, long versionSignature) {
 		typeNamespace = CommonLib.sanitizeAvroIdentifierToBaseFilename(typeNamespace);
 		type = CommonLib.sanitizeAvroIdentifierToBaseFilename(type);
-		String schemaPath = String.format("%s/%s/%s_%s.avsc", this.schemaRegistryResourcePath, typeNamespace, type, versionSignature);
-		// TODO [rkenney]: Cache the schema object
+		String schemaKey = typeNamespace + "/" + type + "_" + versionSignature;
+		Schema schema = this.loadedSchemas.get(schemaKey);
+		if (schema != null) {
+			return schema;
+		}
+		schema = this.embeddedSchemaProvider.getSchema(typeNamespace, type, versionSignature);
+		if (schema != null) {
+			schema = this.schemaInterner.intern(schema);
+			Schema existing = this.loadedSchemas.putIfAbsent(schemaKey, schema);
+			return (existing != null) ? existing : schema;
+		}
+		return this.externalSchemaProvider.getSchema(typeNamespace, type, versionSignature);
+	}
+
+	/**
+	 * Parses a schema from the embedded (resource file) registry.
+	 * 
+	 * @return The parsed {@link Schema}, or <code>null</code> if no matching
+	 *         resource file was found.
+	 */
+	private static Schema loadSchemaResource(String schemaRegistryResourcePath, String typeNamespace, String type, long versionSignature) {
+		String schemaPath = String.format("%s/%s/%s_%s.avsc", schemaRegistryResourcePath, typeNamespace, type, versionSignature);
 		try (InputStream in = AvroJsonLoader.class.getResourceAsStream(schemaPath)) {
 			if (in != null) {
 				return new Schema.Parser().parse(in);
@@ -225,6 +298,6 @@ public class AvroJsonLoader {
 			// so we don't throw AvroSchemaNotFoundException 
 			throw new RuntimeException("Failed to load resource file [" + schemaPath + "]", e);
 		}
-		return this.externalSchemaProvider.getSchema(typeNamespace, type, versionSignature);
+		return null;
 	}
 }
@@ -0,0 +1,128 @@
+package com.github.moebiussolutions.avro_registry_in_source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.avro.Schema;
+import org.apache.commons.io.IOUtils;
+
+import com.github.moebiussolutions.avro_registry_in_source.common.CommonLib;
+import com.github.moebiussolutions.avro_registry_in_source.common.SchemaArchiveFormat;
+
+/**
+ * Provides schemas from a packed schema archive, as written by the
+ * <code>schemaArchiveFile</code> option of the maven plugin. Only the table of
+ * contents is decoded up front; each schema is decompressed and parsed when it
+ * is requested.
+ *
+ * <p>
+ * An archive that is a plain file is memory-mapped. An archive embedded in a
+ * JAR (the usual deployment) cannot be mapped, so the full (deflated) archive
+ * is read into memory when opened.
+ * </p>
+ *
+ * <p>
+ * This does not cache the parsed schemas. Pass it to
+ * {@link AvroJsonLoader#AvroJsonLoader(SchemaArchive, SchemaProvider)} to have
+ * them cached (and shared between versions).
+ * </p>
+ */
+public class SchemaArchive implements SchemaProvider {
+
+	private final String description;
+	private final ByteBuffer archive;
+	private final SchemaArchiveFormat.TableOfContents toc;
+
+	private SchemaArchive(String description, ByteBuffer archive) throws IOException {
+		this.description = description;
+		this.archive = archive;
+		this.toc = SchemaArchiveFormat.readTableOfContents(archive);
+	}
+
+	/**
+	 * Opens an archive from the classpath. See {@link #open(URL)}.
+	 *
+	 * @param archiveResourcePath Resource file path of the archive.
+	 * @return The opened archive.
+	 */
+	public static SchemaArchive open(String archiveResourcePath) {
+		URL url = SchemaArchive.class.getResource(archiveResourcePath);
+		if (url == null) {
+			throw new RuntimeException("Schema archive resource [" + archiveResourcePath + "] not found");
+		}
+		return open(url);
+	}
+
+	/**
+	 * Opens an archive from a URL. The archive is memory-mapped if it is a plain
+	 * file, otherwise (e.g. when embedded in a JAR) the full archive is read into
+	 * memory.
+	 *
+	 * @param archiveUrl URL of the archive.
+	 * @return The opened archive.
+	 */
+	public static SchemaArchive open(URL archiveUrl) {
+		try {
+			if ("file".equals(archiveUrl.getProtocol())) {
+				return new SchemaArchive(archiveUrl.toString(), map(new File(archiveUrl.toURI())));
+			}
+			try (InputStream in = archiveUrl.openStream()) {
+				return new SchemaArchive(archiveUrl.toString(), ByteBuffer.wrap(IOUtils.toByteArray(in)));
+			}
+		} catch (IOException | URISyntaxException e) {
+			throw new RuntimeException("Failed to load schema archive [" + archiveUrl + "]", e);
+		}
+	}
+
+	/**
+	 * Opens (memory-maps) an archive from the filesystem.
+	 *
+	 * @param archiveFile The archive file.
+	 * @return The opened archive.
+	 */
+	public static SchemaArchive open(File archiveFile) {
+		try {
+			return new SchemaArchive(archiveFile.toString(), map(archiveFile));
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to load schema archive [" + archiveFile + "]", e);
+		}
+	}
+
+	private static ByteBuffer map(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file.toURI()), StandardOpenOption.READ)) {
+			// NOTE: The mapping remains valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	/**
+	 * @return The number of schemas in the archive.
+	 */
+	public int size() {
+		return this.toc.size();
+	}
+
+	@Override
+	public Schema getSchema(String namespace, String type, long signature) {
+		namespace = CommonLib.sanitizeAvroIdentifierToBaseFilename(namespace);
+		type = CommonLib.sanitizeAvroIdentifierToBaseFilename(type);
+		int index = this.toc.find(namespace, type, signature);
+		if (index < 0) {
+			return null;
+		}
+		try {
+			return new Schema.Parser().parse(SchemaArchiveFormat.readSchemaJson(this.archive, this.toc, index));
+		} catch (RuntimeException | IOException e) {
+			// NOTE: As with resource files, an invalid archive is not a recoverable situation
+			throw new RuntimeException(String.format("Failed to load schema [%s:%s:%s] from archive [%s]",
+					namespace, type, signature, this.description), e);
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.github.moebiussolutions.avro_registry_in_source;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * Shares structurally identical named types (records, enums, fixed) between
+ * independently parsed schemas. Each historical schema file repeats the full
+ * definition of every type it references, so without this, every loaded version
+ * holds its own copy of (e.g.) <code>BedSize</code>.
+ *
+ * <p>
+ * Named types are keyed by the fingerprint of their full JSON definition (not
+ * the parsing canonical form), so docs, defaults and aliases--which affect
+ * schema resolution--are never collapsed together.
+ * </p>
+ */
+class SchemaInterner {
+
+	private final Map<Long, List<Schema>> namedTypes = new HashMap<>();
+
+	/**
+	 * Returns a schema equivalent to the provided one, in which every named type
+	 * has been replaced by a previously interned instance (when one exists).
+	 *
+	 * @param schema The freshly parsed schema.
+	 * @return The interned schema (which may be the provided instance).
+	 */
+	public synchronized Schema intern(Schema schema) {
+		return intern(schema, new IdentityHashMap<>());
+	}
+
+	private Schema intern(Schema schema, Map<Schema, Schema> inProgress) {
+		Schema result = inProgress.get(schema);
+		if (result != null) {
+			// NOTE: Recursive reference to a record that is still being rebuilt
+			return result;
+		}
+		switch (schema.getType()) {
+		case RECORD: {
+			String json = schema.toString();
+			Schema existing = findNamedType(json);
+			if (existing != null) {
+				return existing;
+			}
+			result = Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), schema.isError());
+			inProgress.put(schema, result);
+			List<Schema.Field> fields = new ArrayList<>(schema.getFields().size());
+			for (Schema.Field field : schema.getFields()) {
+				fields.add(new Schema.Field(field, intern(field.schema(), inProgress)));
+			}
+			result.setFields(fields);
+			copyNamedAttributes(schema, result);
+			addNamedType(json, result);
+			return result;
+		}
+		case ENUM:
+		case FIXED: {
+			// NOTE: These have no nested types, so the parsed instance can be shared as-is
+			String json = schema.toString();
+			Schema existing = findNamedType(json);
+			if (existing != null) {
+				return existing;
+			}
+			addNamedType(json, schema);
+			return schema;
+		}
+		case ARRAY: {
+			Schema elementType = intern(schema.getElementType(), inProgress);
+			if (elementType == schema.getElementType()) {
+				return schema;
+			}
+			result = Schema.createArray(elementType);
+			result.addAllProps(schema);
+			return result;
+		}
+		case MAP: {
+			Schema valueType = intern(schema.getValueType(), inProgress);
+			if (valueType == schema.getValueType()) {
+				return schema;
+			}
+			result = Schema.createMap(valueType);
+			result.addAllProps(schema);
+			return result;
+		}
+		case UNION: {
+			boolean changed = false;
+			List<Schema> types = new ArrayList<>(schema.getTypes().size());
+			for (Schema type : schema.getTypes()) {
+				Schema internedType = intern(type, inProgress);
+				changed |= (internedType != type);
+				types.add(internedType);
+			}
+			if (!changed) {
+				return schema;
+			}
+			result = Schema.createUnion(types);
+			result.addAllProps(schema);
+			return result;
+		}
+		default:
+			// Primitives carry no named types
+			return schema;
+		}
+	}
+
+	private static long fingerprint(String json) {
+		return SchemaNormalization.fingerprint64(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private Schema findNamedType(String json) {
+		List<Schema> candidates = this.namedTypes.get(fingerprint(json));
+		if (candidates == null) {
+			return null;
+		}
+		for (Schema candidate : candidates) {
+			// NOTE: Guarding against fingerprint collisions
+			if (candidate.toString().equals(json)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	private void addNamedType(String json, Schema namedType) {
+		this.namedTypes.computeIfAbsent(fingerprint(json), (fp) -> new ArrayList<>(1)).add(namedType);
+	}
+
+	private static void copyNamedAttributes(Schema from, Schema to) {
+		to.addAllProps(from);
+		for (String alias : from.getAliases()) {
+			to.addAlias(alias);
+		}
+	}
+}